@@ -53,6 +53,16 @@ public class CommandlineParser {
             configuration.setWorkingDirectory(commandLine.getOptionValue("directory"));
         }
 
+        // Output format
+        if(commandLine.hasOption("format")) {
+            configuration.setOutputFormat(commandLine.getOptionValue("format"));
+        }
+
+        // HTTP/2
+        if(commandLine.hasOption("http2")) {
+            configuration.setHttp2Enabled(true);
+        }
+
         // Make sure all configurations are provided
         String errorMsg = configuration.validate();
         if(!StringUtils.isBlank(errorMsg)) {
@@ -89,6 +99,10 @@ public class CommandlineParser {
                 .addOption("h", "help", false, "Print usage.")
                 .addOption("a", "authen-url", true, "Specify the authentication REST endpoint base URL.")
                 .addOption("c", "czds-url", true, "Specify the CZDS REST endpoint base URL.")
+                .addOption("f", "format", true, "Specify the format zone files are saved in: gzip (default) or zstd.")
+                .addOption(Option.builder().longOpt("http2")
+                        .desc("Use HTTP/2 to talk to the CZDS REST endpoints, falling back to HTTP/1.1 if not supported.")
+                        .build())
                 .addOption(tldOption);
 
         // Create a parser
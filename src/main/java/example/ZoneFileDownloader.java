@@ -3,10 +3,12 @@ package example;
 import org.apache.commons.cli.*;
 import org.icann.czds.sdk.client.ZoneDownloadClient;
 import org.icann.czds.sdk.model.AuthenticationException;
+import org.icann.czds.sdk.model.DownloadRunReport;
+import org.icann.czds.sdk.model.DownloadRunSummary;
+import org.icann.czds.sdk.model.ZoneDownloadResult;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import static example.CommandlineParser.mergeCommandOptions;
 import static example.CommandlineParser.parseCommandLineArguments;
@@ -55,6 +57,8 @@ public class ZoneFileDownloader {
         } catch (IOException | AuthenticationException e) {
             System.out.println(e.getMessage());
             System.exit(1);
+        } finally {
+            closeClient();
         }
     }
 
@@ -63,9 +67,9 @@ public class ZoneFileDownloader {
      */
     private void downloadAllApprovedZoneFiles() throws IOException, AuthenticationException {
         System.out.println("Start downloading all APPROVED zone files. This may take a while.");
-        List<File> fileList = client.downloadApprovedZoneFiles();
+        DownloadRunReport report = client.downloadApprovedZones();
         System.out.println("Finishing downloading all APPROVED zone files.");
-        printResultFiles(fileList);
+        printReport(report);
     }
 
     /**
@@ -74,14 +78,19 @@ public class ZoneFileDownloader {
     private void downloadZoneFile(String[] tlds) throws IOException, AuthenticationException {
         System.out.println("Start download zone file(s). This may take a while.");
 
-        List<File> fileList = new ArrayList<>();
-        for(int i = 0; i < tlds.length; i ++) {
-            fileList.add(client.downloadZoneFile(tlds[i]));
-        }
+        DownloadRunReport report = client.downloadZoneFiles(Arrays.asList(tlds));
 
         System.out.println("Finishing downloading the zone file(s).");
 
-        printResultFiles(fileList);
+        printReport(report);
+    }
+
+    private void closeClient() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            System.out.println("ERROR: failed to close client with error " + e.getMessage());
+        }
     }
 
     private void printUsage(Options options) {
@@ -89,10 +98,21 @@ public class ZoneFileDownloader {
         formatter.printHelp("ZoneFileDownloader", options, true);
     }
 
-    private void printResultFiles(List<File> fileList) {
+    private void printReport(DownloadRunReport report) {
         System.out.println("Downloading completed. Here are the file(s):");
-        if (!fileList.isEmpty()) {
-            fileList.forEach(file -> System.out.println(file.getAbsolutePath()));
+        for (ZoneDownloadResult result : report.getResults()) {
+            if (result.getStatus() == ZoneDownloadResult.Status.SUCCESS) {
+                System.out.println(result.getFile());
+            } else {
+                System.out.println(result.getStatus() + " " + result.getZone() + ": " + result.getError());
+            }
+        }
+
+        DownloadRunSummary summary = report.getSummary();
+        System.out.println(String.format("%d succeeded, %d skipped, %d failed, %d bytes in %d millisecond",
+                summary.getSucceeded(), summary.getSkipped(), summary.getFailed(), summary.getTotalBytes(), summary.getDurationMillis()));
+        if (report.getReportFile() != null) {
+            System.out.println("Download report: " + report.getReportFile().getAbsolutePath());
         }
     }
 }
@@ -0,0 +1,71 @@
+package org.icann.czds.sdk.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed size pool of buffers shared by the write-behind disk stage.
+ * <p>
+ * Buffers are allocated on first use, up to the pool capacity. Once all of them are in use, {@link #acquire()} blocks
+ * until the disk writer hands one back, which is what throttles the network reader when the disk falls behind.
+ */
+class BufferPool {
+
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+
+    private final int bufferSize;
+
+    private final int capacity;
+
+    private int allocated;
+
+    BufferPool(int capacity, int bufferSize) {
+        this.freeBuffers = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.bufferSize = bufferSize;
+    }
+
+    ByteBuffer acquire() throws IOException {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+
+        synchronized (this) {
+            if (allocated < capacity) {
+                allocated++;
+                return ByteBuffer.allocate(bufferSize);
+            }
+        }
+
+        try {
+            return freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("ERROR: Interrupted while waiting for a free disk buffer");
+        }
+    }
+
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        freeBuffers.offer(buffer);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /*
+     * Number of buffers which can be acquired without blocking, counting those not allocated yet.
+     */
+    synchronized int getAvailable() {
+        return freeBuffers.size() + capacity - allocated;
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
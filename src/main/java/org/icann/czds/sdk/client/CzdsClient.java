@@ -5,36 +5,58 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.icann.czds.sdk.model.AuthResult;
 import org.icann.czds.sdk.model.AuthenticationException;
 import org.icann.czds.sdk.model.ClientConfiguration;
+import org.icann.czds.sdk.model.ZoneDownloadResult;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.StringWriter;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
 import java.util.*;
 
-public class CzdsClient {
+import javax.net.ssl.SSLException;
+
+public class CzdsClient implements Closeable {
+
+    /*
+     * Number of times a HEAD or GET request is resent after failing without a response, e.g. on a dropped connection
+     */
+    protected static final int MAX_RETRIES = 3;
 
     protected ObjectMapper objectMapper;
 
     protected ClientConfiguration clientConfiguration;
 
+    protected HttpTransport httpTransport;
+
     protected String token;
 
     /*
      * Instantiate the client by providing ClientConfiguration
      */
     public CzdsClient(ClientConfiguration clientConfiguration) {
+        this(clientConfiguration, HttpTransport.create(clientConfiguration));
+    }
+
+    /*
+     * Instantiate the client by providing ClientConfiguration and the HttpTransport used to send requests
+     */
+    public CzdsClient(ClientConfiguration clientConfiguration, HttpTransport httpTransport) {
         this.objectMapper = new ObjectMapper();
         this.clientConfiguration = clientConfiguration;
-
+        this.httpTransport = httpTransport;
     }
 
     protected String getAuthenticationUrl() {
@@ -42,11 +64,17 @@ public class CzdsClient {
     }
 
     protected HttpResponse makeHeadRequest(String url) throws IOException, AuthenticationException {
-        HttpClient httpclient = HttpClients.createDefault();
+        return makeHeadRequest(url, null);
+    }
+
+    /*
+     * Same as makeHeadRequest(url), also counting a retry after re-authenticating in the given result if not null.
+     */
+    protected HttpResponse makeHeadRequest(String url, ZoneDownloadResult result) throws IOException, AuthenticationException {
         HttpHead httpHead = new HttpHead(url);
         httpHead.addHeader("Authorization", "Bearer " + this.token);
         httpHead.addHeader("Accept-Encoding", "gzip");
-        HttpResponse response = httpclient.execute(httpHead);
+        HttpResponse response = executeWithRetries(httpHead, result);
         if (response.getStatusLine().getStatusCode() == 404) {
             System.out.println(String.format("ERROR: Please check url %s", url));
         }
@@ -58,7 +86,8 @@ public class CzdsClient {
         if (response.getStatusLine().getStatusCode() == 401) {
             this.token = null;
             authenticateIfRequired();
-            response = makeHeadRequest(url);
+            countRetry(result);
+            response = makeHeadRequest(url, result);
         }
 
         if(response.getStatusLine().getStatusCode() == 428){
@@ -81,27 +110,42 @@ public class CzdsClient {
     }
 
     protected HttpResponse makeGetRequest(String url) throws IOException, AuthenticationException {
-        HttpClient httpclient = HttpClients.createDefault();
+        return makeGetRequest(url, null);
+    }
+
+    /*
+     * Same as makeGetRequest(url), also recording the status code of every response and any retry after
+     * re-authenticating in the given result if not null. The status is recorded before an error is thrown for it.
+     */
+    protected HttpResponse makeGetRequest(String url, ZoneDownloadResult result) throws IOException, AuthenticationException {
         HttpGet httpGet = new HttpGet(url);
         httpGet.addHeader("Authorization", "Bearer " + this.token);
         httpGet.addHeader("Accept-Encoding", "gzip");
-        HttpResponse response = httpclient.execute(httpGet);
+        HttpResponse response = executeWithRetries(httpGet, result);
+        if (result != null) {
+            result.setHttpStatus(response.getStatusLine().getStatusCode());
+        }
 
         if (response.getStatusLine().getStatusCode() == 404) {
+            releaseConnection(response);
             throw new IOException(String.format("ERROR: Please check url %s", url));
         }
 
         if(response.getStatusLine().getStatusCode() == 403){
+            releaseConnection(response);
             throw new AuthenticationException(String.format("ERROR: %s is not authorized to download  %s", clientConfiguration.getUserName(), url));
         }
 
         if (response.getStatusLine().getStatusCode() == 401) {
+            releaseConnection(response);
             this.token = null;
             authenticateIfRequired();
-            response = makeGetRequest(url);
+            countRetry(result);
+            response = makeGetRequest(url, result);
         }
 
         if(response.getStatusLine().getStatusCode() == 428){
+            releaseConnection(response);
 
             String reason = response.getStatusLine().getReasonPhrase();
 
@@ -113,6 +157,7 @@ public class CzdsClient {
         }
 
         if (response.getStatusLine().getStatusCode() == 503) {
+            releaseConnection(response);
             throw new AuthenticationException("ERROR: Service Unavailable");
         }
 
@@ -125,7 +170,6 @@ public class CzdsClient {
             return;
         }
 
-        HttpClient httpclient = HttpClients.createDefault();
         HttpPost httppost = new HttpPost(getAuthenticationUrl());
 
         Map<String, String> params = new HashMap<>();
@@ -133,17 +177,20 @@ public class CzdsClient {
         params.put("password", clientConfiguration.getPassword());
 
         httppost.setEntity(buildRequestEntity(params));
-        HttpResponse response = httpclient.execute(httppost);
+        HttpResponse response = httpTransport.execute(httppost);
         HttpEntity entity = response.getEntity();
 
         if (response.getStatusLine().getStatusCode() == 404) {
+            releaseConnection(response);
             throw new IOException(String.format("ERROR: Please check url %s", getAuthenticationUrl()));
         }
 
         if (response.getStatusLine().getStatusCode() == 401) {
+            releaseConnection(response);
             throw new AuthenticationException(String.format("ERROR: Invalid username or password for user %s. Please reset your password via Web", clientConfiguration.getUserName()));
         }
         if (response.getStatusLine().getStatusCode() == 500) {
+            releaseConnection(response);
             throw new AuthenticationException("ERROR: Internal Server Exception. Please try again later");
         }
 
@@ -168,4 +215,64 @@ public class CzdsClient {
         stringEntity.setContentType("application/json");
         return stringEntity;
     }
+
+    /*
+     * Execute an idempotent request, resending it up to MAX_RETRIES times if it fails without a response and counting
+     * every resend in the given result if not null. Timeouts and errors which resending cannot fix are thrown at once.
+     */
+    private HttpResponse executeWithRetries(HttpUriRequest request, ZoneDownloadResult result) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return httpTransport.execute(request);
+            } catch (IOException e) {
+                if (attempt >= MAX_RETRIES || !isRetriable(e)) {
+                    throw e;
+                }
+                System.out.println(String.format("Retrying %s %s after error %s", request.getMethod(), request.getURI(), e.getMessage()));
+                countRetry(result);
+            }
+        }
+    }
+
+    private boolean isRetriable(IOException e) {
+        return !(e instanceof InterruptedIOException
+                || e instanceof HttpTimeoutException
+                || e instanceof UnknownHostException
+                || e instanceof ConnectException
+                || e instanceof SSLException);
+    }
+
+    private void countRetry(ZoneDownloadResult result) {
+        if (result != null) {
+            result.setRetries(result.getRetries() + 1);
+        }
+    }
+
+    /*
+     * Discard the remaining body of a response which will not be read, so its connection can be reused.
+     */
+    protected void releaseConnection(HttpResponse response) {
+        EntityUtils.consumeQuietly(response.getEntity());
+    }
+
+    /*
+     * Close a response whose body may not have been read to its end, e.g. after saving a zone file failed halfway.
+     * Unlike releaseConnection, the rest of the body is not downloaded: the connection is closed instead if needed.
+     */
+    protected void closeResponse(HttpResponse response) {
+        try {
+            if (response instanceof Closeable) {
+                ((Closeable) response).close();
+            } else if (response.getEntity() != null && response.getEntity().isStreaming()) {
+                response.getEntity().getContent().close();
+            }
+        } catch (IOException e) {
+            // Nothing more can be done with a broken connection
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpTransport.close();
+    }
 }
@@ -0,0 +1,106 @@
+package org.icann.czds.sdk.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.icann.czds.sdk.model.DownloadRunSummary;
+import org.icann.czds.sdk.model.ZoneDownloadResult;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * DownloadReportWriter summarizes a run of zone file downloads and saves it as a JSON Lines report.
+ * <p>
+ * The report holds one line per zone, in download order, followed by one summary line. Every line carries a
+ * {@code type} property, either {@code zone} or {@code summary}, to tell them apart.
+ */
+class DownloadReportWriter {
+
+    private static final DateTimeFormatter FILE_NAME_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+
+    DownloadReportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    DownloadRunSummary summarize(List<ZoneDownloadResult> results, Instant startedAt, long durationMillis) {
+        DownloadRunSummary summary = new DownloadRunSummary();
+        summary.setStartedAt(startedAt.toString());
+        summary.setDurationMillis(durationMillis);
+        summary.setZones(results.size());
+
+        long totalBytes = 0;
+        int retries = 0;
+        for (ZoneDownloadResult result : results) {
+            totalBytes += result.getBytes();
+            retries += result.getRetries();
+            switch (result.getStatus()) {
+                case SUCCESS:
+                    summary.setSucceeded(summary.getSucceeded() + 1);
+                    break;
+                case SKIPPED:
+                    summary.setSkipped(summary.getSkipped() + 1);
+                    break;
+                default:
+                    summary.setFailed(summary.getFailed() + 1);
+            }
+        }
+        summary.setTotalBytes(totalBytes);
+        summary.setRetries(retries);
+        summary.setThroughputBytesPerSecond(durationMillis == 0 ? 0 : totalBytes * 1000 / durationMillis);
+
+        long[] durations = results.stream().filter(result -> result.getStatus() == ZoneDownloadResult.Status.SUCCESS)
+                .mapToLong(ZoneDownloadResult::getDurationMillis).sorted().toArray();
+        summary.setDurationMillisP50(percentile(durations, 50));
+        summary.setDurationMillisP90(percentile(durations, 90));
+        summary.setDurationMillisP99(percentile(durations, 99));
+        summary.setDurationMillisMax(percentile(durations, 100));
+
+        long[] timesToFirstByte = results.stream().filter(result -> result.getStatus() == ZoneDownloadResult.Status.SUCCESS)
+                .mapToLong(ZoneDownloadResult::getTimeToFirstByteMillis).sorted().toArray();
+        summary.setTimeToFirstByteMillisP50(percentile(timesToFirstByte, 50));
+        summary.setTimeToFirstByteMillisP90(percentile(timesToFirstByte, 90));
+        summary.setTimeToFirstByteMillisP99(percentile(timesToFirstByte, 99));
+
+        return summary;
+    }
+
+    /**
+     * Write the report into the given directory, named after the time the run started at.
+     *
+     * @return The report file
+     *
+     * @throws IOException Failed to write the report
+     */
+    File write(File directory, List<ZoneDownloadResult> results, DownloadRunSummary summary, Instant startedAt) throws IOException {
+        File reportFile = new File(directory, "zonefiles-report-" + FILE_NAME_TIMESTAMP.format(startedAt) + ".jsonl");
+        try (BufferedWriter writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            for (ZoneDownloadResult result : results) {
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.newLine();
+            }
+            writer.write(objectMapper.writeValueAsString(summary));
+            writer.newLine();
+        }
+        return reportFile;
+    }
+
+    /*
+     * Nearest-rank percentile of sorted values, 0 if there are none.
+     */
+    private static long percentile(long[] sortedValues, int percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(rank, 1) - 1];
+    }
+}
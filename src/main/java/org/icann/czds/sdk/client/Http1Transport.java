@@ -0,0 +1,63 @@
+package org.icann.czds.sdk.client;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+import java.io.IOException;
+
+/**
+ * HTTP/1.1 transport backed by a single pooled Apache HttpClient.
+ */
+public class Http1Transport implements HttpTransport {
+
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS = 60_000;
+
+    private final CloseableHttpClient httpClient;
+
+    /*
+     * Instantiate the transport with at most maxConnections open connections per host
+     */
+    public Http1Transport(int maxConnections) {
+        this(maxConnections, DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    /*
+     * Instantiate the transport with at most maxConnections open connections per host. A request waiting longer than
+     * connectionRequestTimeoutMillis for a free connection fails instead of waiting forever.
+     */
+    public Http1Transport(int maxConnections, int connectionRequestTimeoutMillis) {
+        this(maxConnections, connectionRequestTimeoutMillis, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_RESPONSE_TIMEOUT_MILLIS);
+    }
+
+    /*
+     * Instantiate the transport with at most maxConnections open connections per host and the given timeouts. The
+     * response timeout applies to every read from the socket, so a body stalling halfway fails as well.
+     */
+    public Http1Transport(int maxConnections, int connectionRequestTimeoutMillis, int connectTimeoutMillis,
+                          int responseTimeoutMillis) {
+        this.httpClient = HttpClients.custom()
+                .setMaxConnPerRoute(maxConnections)
+                .setMaxConnTotal(maxConnections * 2)
+                // CzdsClient resends failed requests itself so every retry is counted in the download report
+                .disableAutomaticRetries()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                        .setConnectTimeout(connectTimeoutMillis)
+                        .setSocketTimeout(responseTimeoutMillis)
+                        .build())
+                .build();
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return httpClient.execute(request);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,169 @@
+package org.icann.czds.sdk.client;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * HTTP/2 transport backed by the JDK {@link HttpClient}.
+ * <p>
+ * Requests to the same host are multiplexed as streams over a shared connection. Servers which do not negotiate
+ * HTTP/2 (via ALPN for https, or the h2c upgrade for plain http) are transparently talked to over HTTP/1.1.
+ * Responses are adapted to Apache HttpClient responses so {@link CzdsClient} works the same with either transport.
+ * <p>
+ * Note that {@link ZoneDownloadClient} downloads zone files one after another, so only one stream is in flight at a
+ * time and multiplexing does not speed it up yet; what it saves is the connection setup per request.
+ */
+public class Http2Transport implements HttpTransport {
+
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+    // Headers managed by the JDK client itself, which refuses to have them set on a request
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+
+    private final Duration responseTimeout;
+
+    /*
+     * Instantiate the transport, preferring HTTP/2 for every request
+     */
+    public Http2Transport() {
+        this(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_RESPONSE_TIMEOUT_MILLIS);
+    }
+
+    /*
+     * Instantiate the transport, preferring HTTP/2 for every request, with the given timeouts. Unlike the HTTP/1.1
+     * transport, the JDK client only applies the response timeout until the response headers have been received.
+     */
+    public Http2Transport(int connectTimeoutMillis, int responseTimeoutMillis) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMillis);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getURI())
+                .method(request.getMethod(), buildBodyPublisher(request))
+                .timeout(responseTimeout);
+
+        for (Header header : request.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+
+        if (request instanceof HttpEntityEnclosingRequest && !request.containsHeader("Content-Type")) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null && entity.getContentType() != null) {
+                builder.header("Content-Type", entity.getContentType().getValue());
+            }
+        }
+
+        try {
+            java.net.http.HttpResponse<InputStream> response = httpClient.send(builder.build(),
+                    java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+            return toHttpResponse(request, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("ERROR: Interrupted while waiting for response from " + request.getURI());
+        }
+    }
+
+    private HttpRequest.BodyPublisher buildBodyPublisher(HttpUriRequest request) throws IOException {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null) {
+                return HttpRequest.BodyPublishers.ofByteArray(EntityUtils.toByteArray(entity));
+            }
+        }
+        return HttpRequest.BodyPublishers.noBody();
+    }
+
+    private HttpResponse toHttpResponse(HttpUriRequest request, java.net.http.HttpResponse<InputStream> response) throws IOException {
+        int statusCode = response.statusCode();
+        ProtocolVersion version = response.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : HttpVersion.HTTP_1_1;
+        String reason = StringUtils.defaultString(EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH));
+        JdkHttpResponse httpResponse = new JdkHttpResponse(version, statusCode, reason, response.body());
+
+        response.headers().map().forEach((name, values) -> {
+            // Skip HTTP/2 pseudo headers such as :status
+            if (!name.startsWith(":")) {
+                values.forEach(value -> httpResponse.addHeader(name, value));
+            }
+        });
+
+        if (HttpHead.METHOD_NAME.equals(request.getMethod())) {
+            response.body().close();
+            return httpResponse;
+        }
+
+        long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        InputStreamEntity entity = new InputStreamEntity(response.body(), contentLength,
+                contentType == null ? null : ContentType.parse(contentType));
+
+        // Match Apache HttpClient, which transparently inflates gzip content encoding
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse("");
+        if ("gzip".equalsIgnoreCase(contentEncoding.trim())) {
+            httpResponse.setEntity(new GzipDecompressingEntity(entity));
+            httpResponse.removeHeaders("Content-Length");
+            httpResponse.removeHeaders("Content-Encoding");
+            httpResponse.removeHeaders("Content-MD5");
+        } else {
+            httpResponse.setEntity(entity);
+        }
+
+        return httpResponse;
+    }
+
+    @Override
+    public void close() {
+        // The JDK client releases its connections once it is no longer referenced
+    }
+
+    /*
+     * Closing the response cancels its stream without reading the rest of the body, like closing an Apache
+     * CloseableHttpResponse.
+     */
+    private static class JdkHttpResponse extends BasicHttpResponse implements Closeable {
+
+        private final InputStream body;
+
+        JdkHttpResponse(ProtocolVersion version, int statusCode, String reason, InputStream body) {
+            super(version, statusCode, reason);
+            this.body = body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+}
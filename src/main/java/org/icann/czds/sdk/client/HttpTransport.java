@@ -0,0 +1,53 @@
+package org.icann.czds.sdk.client;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.icann.czds.sdk.model.ClientConfiguration;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * HttpTransport sends the requests made by {@link CzdsClient}.
+ * <p>
+ * A transport is created once per client and reused for every request, so implementations are expected to keep
+ * their connections open between calls. The body of a returned response must be fully read or closed by the caller
+ * so the underlying connection can be handed out again.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Time allowed to open a connection to the server.
+     */
+    int DEFAULT_CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Time allowed for the server to answer a request once it has been sent.
+     */
+    int DEFAULT_RESPONSE_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * Execute the given request and return the response as soon as its headers have been received.
+     *
+     * @param request The request to send
+     *
+     * @return The response, with its body still streaming from the server
+     *
+     * @throws IOException Failed to send the request or receive the response
+     */
+    HttpResponse execute(HttpUriRequest request) throws IOException;
+
+    /**
+     * Create the transport selected in the given configuration.
+     *
+     * @param clientConfiguration The client configuration
+     *
+     * @return {@link Http2Transport} if HTTP/2 is enabled, {@link Http1Transport} otherwise
+     */
+    static HttpTransport create(ClientConfiguration clientConfiguration) {
+        if (clientConfiguration.isHttp2Enabled()) {
+            return new Http2Transport();
+        }
+        return new Http1Transport(clientConfiguration.getMaxConnections());
+    }
+}
@@ -0,0 +1,200 @@
+package org.icann.czds.sdk.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * InputStream which inflates a gzip stream made of one or more members.
+ * <p>
+ * Unlike {@link java.util.zip.GZIPInputStream}, which relies on {@code available()} to decide whether another member
+ * follows and may therefore stop early on a network stream, every member boundary is decided by actually reading the
+ * next byte. The stream must end right after a member, optionally followed by zero bytes only, e.g. the padding a tape
+ * or block device adds: anything else fails with a {@link ZipException}, as does a member whose CRC or size does not
+ * match its trailer.
+ */
+class MultiMemberGzipInputStream extends InputStream {
+
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    private static final int DEFLATE = 8;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private static final int TRAILER_SIZE = 8;
+
+    private final PushbackInputStream in;
+
+    private final Inflater inflater = new Inflater(true);
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] buffer;
+
+    private int bufferLength;
+
+    private boolean eof;
+
+    MultiMemberGzipInputStream(InputStream in, int bufferSize) throws IOException {
+        this.buffer = new byte[bufferSize];
+        this.in = new PushbackInputStream(in, bufferSize);
+        readHeader();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (eof) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            int count;
+            try {
+                count = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new ZipException("ERROR: Invalid gzip data: " + e.getMessage());
+            }
+            if (count > 0) {
+                crc.update(b, off, count);
+                return count;
+            }
+
+            if (inflater.finished()) {
+                readTrailer();
+                if (!startNextMember()) {
+                    eof = true;
+                    return -1;
+                }
+            } else if (inflater.needsDictionary()) {
+                throw new ZipException("ERROR: Invalid gzip data: preset dictionary is not supported");
+            } else if (inflater.needsInput()) {
+                bufferLength = in.read(buffer, 0, buffer.length);
+                if (bufferLength < 0) {
+                    throw new EOFException("ERROR: Unexpected end of gzip stream");
+                }
+                inflater.setInput(buffer, 0, bufferLength);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        if (readUnsignedByte() != GZIP_MAGIC_FIRST || readUnsignedByte() != GZIP_MAGIC_SECOND) {
+            throw new ZipException("ERROR: Not in gzip format");
+        }
+        if (readUnsignedByte() != DEFLATE) {
+            throw new ZipException("ERROR: Unsupported gzip compression method");
+        }
+        int flags = readUnsignedByte();
+        // Modification time, extra flags and operating system
+        skipBytes(6);
+        if ((flags & FEXTRA) != 0) {
+            skipBytes(readUnsignedByte() | readUnsignedByte() << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FHCRC) != 0) {
+            skipBytes(2);
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        // Give back what the inflater read past the end of the member, starting with the trailer
+        int remaining = inflater.getRemaining();
+        if (remaining > 0) {
+            in.unread(buffer, bufferLength - remaining, remaining);
+        }
+
+        byte[] trailer = new byte[TRAILER_SIZE];
+        for (int i = 0; i < TRAILER_SIZE; i++) {
+            trailer[i] = (byte) readUnsignedByte();
+        }
+        if (readUnsignedInt(trailer, 0) != crc.getValue()) {
+            throw new ZipException("ERROR: Corrupt gzip stream: CRC mismatch");
+        }
+        if (readUnsignedInt(trailer, 4) != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("ERROR: Corrupt gzip stream: size mismatch");
+        }
+    }
+
+    private boolean startNextMember() throws IOException {
+        int next = in.read();
+        if (next == -1) {
+            return false;
+        }
+        if (next == 0) {
+            skipZeroPadding();
+            return false;
+        }
+        if (next != GZIP_MAGIC_FIRST) {
+            throw new ZipException("ERROR: Unexpected data after the end of the gzip stream");
+        }
+        in.unread(next);
+        readHeader();
+        inflater.reset();
+        crc.reset();
+        return true;
+    }
+
+    private void skipZeroPadding() throws IOException {
+        int count;
+        while ((count = in.read(buffer, 0, buffer.length)) != -1) {
+            for (int i = 0; i < count; i++) {
+                if (buffer[i] != 0) {
+                    throw new ZipException("ERROR: Unexpected data after the end of the gzip stream");
+                }
+            }
+        }
+    }
+
+    private int readUnsignedByte() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("ERROR: Unexpected end of gzip stream");
+        }
+        return b;
+    }
+
+    private void skipBytes(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (readUnsignedByte() != 0) {
+            // Skip up to and including the terminating zero
+        }
+    }
+
+    private static long readUnsignedInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xffL) | (bytes[offset + 1] & 0xffL) << 8
+                | (bytes[offset + 2] & 0xffL) << 16 | (bytes[offset + 3] & 0xffL) << 24;
+    }
+}
@@ -0,0 +1,259 @@
+package org.icann.czds.sdk.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * OutputStream which hands the data written to it over to a dedicated thread that writes it to a file.
+ * <p>
+ * Data is collected in buffers taken from a {@link BufferPool} and queued once full, so the caller, typically reading
+ * from the network, is only held up when the whole pool is waiting to be written. The writer drains everything that
+ * is queued at once and writes it with a single gathering write, which turns many small writes into few large ones.
+ * All data is on disk, and forced to the storage device if requested, once {@link #close()} returns.
+ * <p>
+ * Reading and writing therefore only overlap within one file: {@link #close()} waits for the writer to finish,
+ * including the fsync when sync is requested, so the next file cannot start downloading while the previous one is
+ * still being forced to the device.
+ */
+class WriteBehindOutputStream extends OutputStream {
+
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+    private final BufferPool bufferPool;
+
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+
+    private final GatheringByteChannel channel;
+
+    private final boolean sync;
+
+    private final Thread writer;
+
+    private volatile IOException failure;
+
+    private ByteBuffer current;
+
+    private boolean closed;
+
+    WriteBehindOutputStream(File file, BufferPool bufferPool, boolean sync) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                file.getName(), bufferPool, sync);
+    }
+
+    /*
+     * Write to the given channel instead of a file, e.g. to simulate a slow or failing disk. Sync only applies to a
+     * FileChannel. The channel is closed once all data is written.
+     */
+    WriteBehindOutputStream(GatheringByteChannel channel, String name, BufferPool bufferPool, boolean sync) {
+        this.bufferPool = bufferPool;
+        this.sync = sync;
+        // One more slot than there are buffers, so queueing the end of stream marker never blocks
+        this.filledBuffers = new ArrayBlockingQueue<>(bufferPool.getCapacity() + 1);
+        this.channel = channel;
+        this.writer = new Thread(this::drain, "czds-disk-writer-" + name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        currentBuffer().put((byte) b);
+        submitIfFull();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer buffer = currentBuffer();
+            int count = Math.min(len, buffer.remaining());
+            buffer.put(b, off, count);
+            off += count;
+            len -= count;
+            submitIfFull();
+        }
+    }
+
+    /**
+     * Read the given stream to its end straight into the backing arrays of the pooled buffers, which saves the copy
+     * from a separate read buffer that {@link #write(byte[], int, int)} would need. The pooled buffers are heap
+     * buffers, so the channel still copies them into a temporary direct buffer when writing them to the file.
+     *
+     * @param inputStream The stream to read
+     *
+     * @return The number of bytes read
+     *
+     * @throws IOException Failed to read the stream, or the writer failed to write to the file
+     */
+    long transferFrom(InputStream inputStream) throws IOException {
+        long total = 0;
+        while (true) {
+            ByteBuffer buffer = currentBuffer();
+            int count = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (count < 0) {
+                return total;
+            }
+            buffer.position(buffer.position() + count);
+            total += count;
+            submitIfFull();
+        }
+    }
+
+    /*
+     * Buffered data is only handed to the writer once a buffer is full or the stream is closed, so that small
+     * flushes by the caller do not turn into small disk writes.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkFailure();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (current != null && current.position() > 0) {
+            submit(current);
+        } else if (current != null) {
+            bufferPool.release(current);
+        }
+        current = null;
+
+        try {
+            filledBuffers.put(END_OF_STREAM);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+            throw new InterruptedIOException("ERROR: Interrupted while waiting for the zone file to be written");
+        }
+        checkFailure();
+    }
+
+    private ByteBuffer currentBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("ERROR: Stream closed");
+        }
+        if (current == null) {
+            checkFailure();
+            try {
+                current = bufferPool.acquire();
+            } catch (InterruptedIOException e) {
+                writer.interrupt();
+                throw e;
+            }
+        }
+        return current;
+    }
+
+    private void submitIfFull() throws IOException {
+        if (!current.hasRemaining()) {
+            submit(current);
+            current = null;
+        }
+    }
+
+    private void submit(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        try {
+            filledBuffers.put(buffer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            bufferPool.release(buffer);
+            writer.interrupt();
+            throw new InterruptedIOException("ERROR: Interrupted while queueing zone file data");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("ERROR: Failed to write zone file", failure);
+        }
+    }
+
+    /*
+     * Runs on the writer thread. After a failure it keeps taking buffers and returns them to the pool unwritten,
+     * so the caller never blocks on a buffer that will not come back and sees the failure on its next write.
+     * The caller interrupts it if it is interrupted itself, since no end of stream marker may follow then.
+     */
+    private void drain() {
+        List<ByteBuffer> batch = new ArrayList<>();
+        boolean endOfStream = false;
+        try {
+            while (!endOfStream) {
+                batch.add(filledBuffers.take());
+                filledBuffers.drainTo(batch);
+                if (batch.get(batch.size() - 1) == END_OF_STREAM) {
+                    batch.remove(batch.size() - 1);
+                    endOfStream = true;
+                }
+
+                if (failure == null) {
+                    writeBatch(batch);
+                }
+                batch.forEach(bufferPool::release);
+                batch.clear();
+            }
+
+            if (failure == null) {
+                forceIfRequested();
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("ERROR: Interrupted while writing zone file");
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            releaseQueuedBuffers();
+            closeChannel();
+        }
+    }
+
+    private void releaseQueuedBuffers() {
+        ByteBuffer buffer;
+        while ((buffer = filledBuffers.poll()) != null) {
+            if (buffer != END_OF_STREAM) {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private void forceIfRequested() throws IOException {
+        if (sync && channel instanceof FileChannel) {
+            ((FileChannel) channel).force(false);
+        }
+    }
+
+    private void writeBatch(List<ByteBuffer> batch) {
+        ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+        try {
+            while (buffers.length > 0 && buffers[buffers.length - 1].hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -6,17 +6,45 @@ import org.apache.http.HttpResponse;
 import org.icann.czds.sdk.model.ApplicationConstants;
 import org.icann.czds.sdk.model.AuthenticationException;
 import org.icann.czds.sdk.model.ClientConfiguration;
+import org.icann.czds.sdk.model.DownloadRunReport;
+import org.icann.czds.sdk.model.DownloadRunSummary;
+import org.icann.czds.sdk.model.OutputFormat;
+import org.icann.czds.sdk.model.ZoneDownloadResult;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ZoneDownloadClient helps you to download all zone file for which a user is approved for or a particular zone file.
  */
 public class ZoneDownloadClient extends CzdsClient {
 
+    /*
+     * Zone files which may wait for recompression behind the one being recompressed. A zone file downloaded while
+     * that many are waiting is kept as gzip, so recompression falling behind never holds up the downloads.
+     */
+    private static final int MAX_QUEUED_RECOMPRESSIONS = 2;
+
+    private BufferPool bufferPool;
+
+    private ExecutorService recompressionExecutor;
+
+    private final List<Future<?>> pendingRecompressions = new ArrayList<>();
+
     /*
      * Instantiate ZoneDownloadClient by providing ClientConfiguration
      */
@@ -48,28 +76,41 @@ public class ZoneDownloadClient extends CzdsClient {
 
     /*
      * This helps you to download All Zone File for which user is approved for.
+     * Unlike downloadApprovedZones, no report file is saved.
      * Throws AuthenticationException if not authorized.
      */
     public List<File> downloadApprovedZoneFiles() throws AuthenticationException, IOException {
         List<File> zoneFiles = new ArrayList<>();
+        for (ZoneDownloadResult result : downloadZones(getApprovedZoneDownloadURLs(), false).getResults()) {
+            if (result.getStatus() == ZoneDownloadResult.Status.SUCCESS) {
+                zoneFiles.add(new File(result.getFile()));
+            }
+        }
+        return zoneFiles;
+    }
+
+    /*
+     * This helps you to download All Zone File for which user is approved for, reporting the outcome of every zone.
+     * The report is also saved as JSON Lines next to the zonefiles directory.
+     * Throws AuthenticationException if not authorized.
+     */
+    public DownloadRunReport downloadApprovedZones() throws AuthenticationException, IOException {
+        return downloadZones(getApprovedZoneDownloadURLs(), true);
+    }
+
+    /*
+     * This helps you to download Zone Files of the given TLDs, reporting the outcome of every zone.
+     * The report is also saved as JSON Lines next to the zonefiles directory.
+     * Throws AuthenticationException if authentication fails.
+     */
+    public DownloadRunReport downloadZoneFiles(Collection<String> zones) throws AuthenticationException, IOException {
         try {
             authenticateIfRequired();
-            String linksURL = getBackendApiUrl() + "downloads/" + ApplicationConstants.CZDS_LINKS;
-            HttpResponse response = makeGetRequest(linksURL);
-
-            Set<String> listOfDownloadURLs = getDownloadURLs(response);
-            long start = System.currentTimeMillis();
-            for (String url : listOfDownloadURLs) {
-                try {
-                    File savedZoneFile = getZoneFile(url);
-                    zoneFiles.add(savedZoneFile);
-                } catch (Exception e) {
-                    System.out.println(String.format("ERROR: failed to download zone file for zone - %s - with error %s", url, e.getMessage()));
-                }
+            List<String> downloadURLs = new ArrayList<>();
+            for (String zone : zones) {
+                downloadURLs.add(getCzdsDownloadUrl() + zone.trim() + ApplicationConstants.CZDS_ZONE);
             }
-            long end = System.currentTimeMillis();
-            System.out.println("download " + zoneFiles.size() + " zone files took " + (end - start)/1000 + " seconds");
-            return zoneFiles;
+            return downloadZones(downloadURLs, true);
         } catch (AuthenticationException | IOException e) {
             throw e;
         }
@@ -84,27 +125,118 @@ public class ZoneDownloadClient extends CzdsClient {
         try {
             authenticateIfRequired();
             String downloadURL = getCzdsDownloadUrl() + zone.trim() + ApplicationConstants.CZDS_ZONE;
-            return getZoneFile(downloadURL);
+            ZoneDownloadResult result = new ZoneDownloadResult();
+            getZoneFile(downloadURL, result);
+            awaitRecompressions();
+            syncOutputDirectory();
+            return new File(result.getFile());
         } catch (AuthenticationException | IOException e) {
             throw e;
         }
     }
 
+    private Set<String> getApprovedZoneDownloadURLs() throws AuthenticationException, IOException {
+        try {
+            authenticateIfRequired();
+            String linksURL = getBackendApiUrl() + "downloads/" + ApplicationConstants.CZDS_LINKS;
+            HttpResponse response = makeGetRequest(linksURL);
 
-    private File getZoneFile(String downloadURL) throws IOException, AuthenticationException {
+            return getDownloadURLs(response);
+        } catch (AuthenticationException | IOException e) {
+            throw e;
+        }
+    }
 
-        System.out.println("Sending head request for zone file from " + downloadURL);
-        long headStart = System.currentTimeMillis();
-        makeHeadRequest(downloadURL);
-        long headEnd = System.currentTimeMillis();
-        System.out.println("head request for zone file " + downloadURL + " took " + (headEnd - headStart) + " millisecond");
-        System.out.println("Downloading  zone file from " + downloadURL);
+    private DownloadRunReport downloadZones(Collection<String> downloadURLs, boolean saveReport) {
+        List<ZoneDownloadResult> results = new ArrayList<>();
+        Instant startedAt = Instant.now();
         long start = System.currentTimeMillis();
-        HttpResponse response = makeGetRequest(downloadURL);
-        File file = createFileLocally(response.getEntity().getContent(), getFileName(response));
+        for (String url : downloadURLs) {
+            ZoneDownloadResult result = new ZoneDownloadResult();
+            try {
+                getZoneFile(url, result);
+            } catch (Exception e) {
+                System.out.println(String.format("ERROR: failed to download zone file for zone - %s - with error %s", url, e.getMessage()));
+                // Only a download request actually answered with 403 or 404 means the zone is not available
+                result.setStatus(result.getHttpStatus() == 403 || result.getHttpStatus() == 404 ? ZoneDownloadResult.Status.SKIPPED : ZoneDownloadResult.Status.FAILED);
+                result.setError(e.getMessage());
+            }
+            results.add(result);
+        }
+        awaitRecompressions();
+        syncOutputDirectory();
         long end = System.currentTimeMillis();
-        System.out.println("download zone file from " + downloadURL + " took " + (end - start) + " millisecond");
-        return file;
+
+        DownloadReportWriter reportWriter = new DownloadReportWriter(objectMapper);
+        DownloadRunSummary summary = reportWriter.summarize(results, startedAt, end - start);
+        File reportFile = null;
+        if (saveReport) {
+            try {
+                reportFile = reportWriter.write(new File(clientConfiguration.getWorkingDirectory()), results, summary, startedAt);
+                System.out.println("Saving download report to " + reportFile.getAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("ERROR: failed to save download report with error " + e.getMessage());
+            }
+        }
+        System.out.println("download " + summary.getSucceeded() + " zone files took " + (end - start)/1000 + " seconds");
+        return new DownloadRunReport(results, summary, reportFile);
+    }
+
+    /*
+     * Download the zone file from the given URL, recording the outcome in the given result as it goes.
+     * The status of the result is only set on success; on failure it is left to the caller.
+     * If zstd is the output format, the zone file is queued for recompression and the result is only complete once
+     * awaitRecompressions() returns.
+     */
+    private File getZoneFile(String downloadURL, ZoneDownloadResult result) throws IOException, AuthenticationException {
+        result.setUrl(downloadURL);
+        result.setZone(StringUtils.removeEnd(StringUtils.substringAfterLast(downloadURL, "/"), ApplicationConstants.CZDS_ZONE));
+
+        System.out.println("Sending head request for zone file from " + downloadURL);
+        long headStart = System.currentTimeMillis();
+        HttpResponse response = null;
+        try {
+            makeHeadRequest(downloadURL, result);
+            long headEnd = System.currentTimeMillis();
+            System.out.println("head request for zone file " + downloadURL + " took " + (headEnd - headStart) + " millisecond");
+            System.out.println("Downloading  zone file from " + downloadURL);
+            long start = System.currentTimeMillis();
+            response = makeGetRequest(downloadURL, result);
+            result.setTimeToFirstByteMillis(System.currentTimeMillis() - start);
+
+            String fileName = getFileName(response);
+            CountingInputStream countingInputStream = new CountingInputStream(response.getEntity().getContent());
+            DigestInputStream digestInputStream = new DigestInputStream(countingInputStream, newChecksumDigest());
+            File file = createFileLocally(digestInputStream, fileName);
+            long end = System.currentTimeMillis();
+            System.out.println("download zone file from " + downloadURL + " took " + (end - start) + " millisecond");
+
+            result.setStatus(ZoneDownloadResult.Status.SUCCESS);
+            result.setFile(file.getAbsolutePath());
+            result.setBytes(countingInputStream.getCount());
+            result.setThroughputBytesPerSecond(countingInputStream.getCount() * 1000 / Math.max(end - start, 1));
+            result.setDownloadChecksum(HexFormat.of().formatHex(digestInputStream.getMessageDigest().digest()));
+
+            if (clientConfiguration.getOutputFormat() == OutputFormat.ZSTD) {
+                scheduleRecompression(file, result);
+            }
+            return file;
+        } finally {
+            // Hand the connection back to the pool whether or not the zone file was saved
+            if (response != null) {
+                closeResponse(response);
+            }
+            result.setDurationMillis(System.currentTimeMillis() - headStart);
+        }
+    }
+
+    private static MessageDigest newChecksumDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -124,8 +256,9 @@ public class ZoneDownloadClient extends CzdsClient {
         }
 
         File file = new File(getZonefileOutputDirectory(), fileName);
-        try {
-            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(file, getBufferPool(), clientConfiguration.isDiskSyncEnabled())) {
+            outputStream.transferFrom(inputStream);
+            outputStream.close();
 
             inputStream.close();
             return file;
@@ -134,6 +267,119 @@ public class ZoneDownloadClient extends CzdsClient {
         }
     }
 
+    /*
+     * Queue the given gzip zone file to be recompressed to zstd while the next zones download. If recompression is
+     * already MAX_QUEUED_RECOMPRESSIONS zone files behind, the zone file is kept as gzip instead.
+     */
+    private void scheduleRecompression(File gzipFile, ZoneDownloadResult result) {
+        try {
+            pendingRecompressions.add(getRecompressionExecutor().submit(() -> recompress(gzipFile, result)));
+        } catch (RejectedExecutionException e) {
+            System.out.println("WARNING: zstd recompression is " + MAX_QUEUED_RECOMPRESSIONS + " zone files behind, keeping "
+                    + gzipFile.getName() + " as gzip");
+        }
+    }
+
+    /*
+     * Runs on the recompression thread. The gzip file is only deleted once the zstd file is complete, and kept if
+     * recompression fails, so a zone file is never lost; the failure is recorded in the result.
+     */
+    private void recompress(File gzipFile, ZoneDownloadResult result) {
+        File zstdFile = new File(gzipFile.getParentFile(), StringUtils.removeEnd(gzipFile.getName(), ".gz") + ".zst");
+        ZstdRecompressor recompressor = createRecompressor();
+        try {
+            ZstdRecompressor.Stats stats;
+            try (InputStream inputStream = new FileInputStream(gzipFile)) {
+                stats = recompressor.recompress(inputStream, new FileOutputStream(zstdFile));
+            }
+            if (clientConfiguration.isDiskSyncEnabled()) {
+                try (FileChannel channel = FileChannel.open(zstdFile.toPath(), StandardOpenOption.WRITE)) {
+                    channel.force(false);
+                }
+            }
+            Files.delete(gzipFile.toPath());
+
+            System.out.println("recompressed zone file " + gzipFile.getName() + " to zstd: " + stats);
+            result.setFile(zstdFile.getAbsolutePath());
+            result.setCompressionRatio(stats.getCompressionRatio());
+            result.setCompressionCpuMillis(stats.getCpuMillis());
+            result.setCompressionWorkerCpuMillis(stats.getWorkerCpuMillis());
+        } catch (IOException | RuntimeException e) {
+            zstdFile.delete();
+            System.out.println("ERROR: failed to recompress zone file " + gzipFile.getName() + ", keeping it as gzip, with error " + e.getMessage());
+            result.setError("ERROR: Failed to recompress zone file to zstd, kept as gzip: " + e.getMessage());
+        }
+    }
+
+    protected ZstdRecompressor createRecompressor() {
+        return new ZstdRecompressor(clientConfiguration.getZstdLevel(), clientConfiguration.getZstdWorkers());
+    }
+
+    /*
+     * Wait for every queued recompression, so that each result names the zone file actually kept.
+     */
+    private void awaitRecompressions() {
+        try {
+            for (Future<?> recompression : pendingRecompressions) {
+                recompression.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("WARNING: interrupted while waiting for zone files to be recompressed");
+        } catch (ExecutionException e) {
+            // recompress() records its own failures, so this is an Error
+            System.out.println("ERROR: zstd recompression failed with error " + e.getCause());
+        } finally {
+            pendingRecompressions.clear();
+        }
+    }
+
+    private synchronized ExecutorService getRecompressionExecutor() {
+        if (recompressionExecutor == null) {
+            recompressionExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(MAX_QUEUED_RECOMPRESSIONS), runnable -> {
+                        Thread thread = new Thread(runnable, "czds-zstd-recompressor");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return recompressionExecutor;
+    }
+
+    /*
+     * Buffers are shared by all downloads of this client, so memory use stays bounded however many zones are saved.
+     */
+    private synchronized BufferPool getBufferPool() {
+        if (bufferPool == null) {
+            bufferPool = new BufferPool(clientConfiguration.getDiskBufferCount(), clientConfiguration.getDiskBufferSize());
+        }
+        return bufferPool;
+    }
+
+    /*
+     * Make the names of the zone files saved so far durable. Done once after a batch of downloads rather than per
+     * file, since one directory sync covers every file created in it.
+     */
+    private void syncOutputDirectory() {
+        if (!clientConfiguration.isDiskSyncEnabled()) {
+            return;
+        }
+        try (FileChannel directory = FileChannel.open(new File(getZonefileOutputDirectory()).toPath(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not every platform allows opening or syncing a directory, e.g. Windows
+            System.out.println("WARNING: failed to sync directory " + getZonefileOutputDirectory() + " with error " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (recompressionExecutor != null) {
+            recompressionExecutor.shutdown();
+        }
+        super.close();
+    }
+
     private String getFileName(HttpResponse response) throws AuthenticationException {
         Header[] headers = response.getHeaders("Content-disposition");
         String preFileName = "attachment;filename=";
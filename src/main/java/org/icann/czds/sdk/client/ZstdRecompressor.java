@@ -0,0 +1,209 @@
+package org.icann.czds.sdk.client;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ZstdRecompressor re-encodes a gzip zone file as zstd.
+ * <p>
+ * {@link ZoneDownloadClient} runs it on a background thread over zone files already saved as gzip, while the next
+ * zone is downloading, so recompression never holds up the network.
+ */
+public class ZstdRecompressor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+
+    private final int level;
+
+    private final int workers;
+
+    /*
+     * Instantiate the recompressor with the zstd compression level and the number of zstd worker threads
+     */
+    public ZstdRecompressor(int level, int workers) {
+        this.level = level;
+        this.workers = workers;
+    }
+
+    /**
+     * Inflate the given stream if it is gzip compressed and write it zstd compressed to the given output.
+     *
+     * @param inputStream The downloaded zone file
+     * @param outputStream Where the zstd compressed zone file is written. It is closed once done.
+     *
+     * @return The compression statistics of the zone file
+     *
+     * @throws IOException Failed to read, inflate or compress the zone file, or the gzip stream is corrupt or is
+     *                     followed by anything but another gzip member
+     */
+    public Stats recompress(InputStream inputStream, OutputStream outputStream) throws IOException {
+        CpuSample cpuStart = new CpuSample(workers > 0);
+        long start = System.nanoTime();
+
+        CountingInputStream compressedInput = new CountingInputStream(inputStream);
+        CountingOutputStream compressedOutput = new CountingOutputStream(outputStream);
+        long uncompressedBytes;
+        // The output is closed even if the input turns out not to be valid gzip
+        try (compressedOutput; ZstdOutputStream zstdOutputStream = new ZstdOutputStream(compressedOutput, level)) {
+            zstdOutputStream.setWorkers(workers);
+            uncompressedBytes = inflateIfGzip(compressedInput).transferTo(zstdOutputStream);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        CpuSample cpuEnd = new CpuSample(workers > 0);
+        return new Stats(compressedInput.getCount(), uncompressedBytes, compressedOutput.getCount(), elapsedMillis,
+                getThreadCpuMillis(cpuStart, cpuEnd), estimateWorkerCpuMillis(cpuStart, cpuEnd));
+    }
+
+    private InputStream inflateIfGzip(InputStream inputStream) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        bufferedInputStream.mark(2);
+        boolean gzip = bufferedInputStream.read() == GZIP_MAGIC_FIRST && bufferedInputStream.read() == GZIP_MAGIC_SECOND;
+        bufferedInputStream.reset();
+        return gzip ? new MultiMemberGzipInputStream(bufferedInputStream, BUFFER_SIZE) : bufferedInputStream;
+    }
+
+    private static Long getThreadCpuMillis(CpuSample start, CpuSample end) {
+        if (start.threadCpuTime == -1 || end.threadCpuTime == -1) {
+            return null;
+        }
+        return (end.threadCpuTime - start.threadCpuTime) / 1_000_000;
+    }
+
+    /*
+     * zstd worker threads are native threads which ThreadMXBean does not see, so their CPU time is estimated as the
+     * CPU time of the whole process minus that of every Java thread over the same period. This is an upper bound: it
+     * also covers JVM internal threads, such as the garbage collector and the JIT compiler, and Java threads which
+     * ended in the meantime.
+     */
+    private Long estimateWorkerCpuMillis(CpuSample start, CpuSample end) {
+        if (workers == 0) {
+            return 0L;
+        }
+        if (start.processCpuTime == -1 || end.processCpuTime == -1 || end.javaThreadCpuTimes.isEmpty()) {
+            return null;
+        }
+        long javaThreadCpuTime = 0;
+        for (Map.Entry<Long, Long> thread : end.javaThreadCpuTimes.entrySet()) {
+            javaThreadCpuTime += thread.getValue() - start.javaThreadCpuTimes.getOrDefault(thread.getKey(), 0L);
+        }
+        return Math.max(0, end.processCpuTime - start.processCpuTime - javaThreadCpuTime) / 1_000_000;
+    }
+
+    /*
+     * CPU time of the whole process, including zstd worker threads, or -1 if the JVM does not expose it.
+     */
+    private static long getProcessCpuTime() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    /*
+     * CPU times in nanoseconds at one point of a recompression, -1 where the JVM does not expose them.
+     */
+    private static class CpuSample {
+
+        private final long threadCpuTime;
+        private final long processCpuTime;
+        private final Map<Long, Long> javaThreadCpuTimes = new HashMap<>();
+
+        CpuSample(boolean includeJavaThreads) {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            this.threadCpuTime = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+            this.processCpuTime = getProcessCpuTime();
+            if (includeJavaThreads && threadBean.isThreadCpuTimeSupported()) {
+                for (long id : threadBean.getAllThreadIds()) {
+                    long cpuTime = threadBean.getThreadCpuTime(id);
+                    if (cpuTime != -1) {
+                        javaThreadCpuTimes.put(id, cpuTime);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sizes and cost of recompressing one zone file.
+     */
+    public static class Stats {
+
+        private final long downloadedBytes;
+        private final long uncompressedBytes;
+        private final long savedBytes;
+        private final long elapsedMillis;
+        private final Long cpuMillis;
+        private final Long workerCpuMillis;
+
+        Stats(long downloadedBytes, long uncompressedBytes, long savedBytes, long elapsedMillis, Long cpuMillis,
+              Long workerCpuMillis) {
+            this.downloadedBytes = downloadedBytes;
+            this.uncompressedBytes = uncompressedBytes;
+            this.savedBytes = savedBytes;
+            this.elapsedMillis = elapsedMillis;
+            this.cpuMillis = cpuMillis;
+            this.workerCpuMillis = workerCpuMillis;
+        }
+
+        public long getDownloadedBytes() {
+            return downloadedBytes;
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return CPU time of the thread which inflated the gzip file and drove zstd, which includes all of the
+         * compression when there are no zstd workers, or null if the JVM does not measure thread CPU time
+         */
+        public Long getCpuMillis() {
+            return cpuMillis;
+        }
+
+        /**
+         * @return Estimated CPU time of the zstd worker threads, an upper bound which may include some JVM internal
+         * work; 0 without workers, or null if the JVM does not measure process or thread CPU time
+         */
+        public Long getWorkerCpuMillis() {
+            return workerCpuMillis;
+        }
+
+        /**
+         * @return Uncompressed size divided by zstd compressed size
+         */
+        public double getCompressionRatio() {
+            return savedBytes == 0 ? 0 : (double) uncompressedBytes / savedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d gzip bytes -> %d bytes -> %d zstd bytes (ratio %.2f, %d%% of gzip size), took %d millisecond with %s millisecond of CPU plus an estimated %s millisecond in zstd workers",
+                    downloadedBytes, uncompressedBytes, savedBytes, getCompressionRatio(),
+                    downloadedBytes == 0 ? 0 : savedBytes * 100 / downloadedBytes, elapsedMillis,
+                    cpuMillis == null ? "unknown" : cpuMillis, workerCpuMillis == null ? "unknown" : workerCpuMillis);
+        }
+    }
+}
@@ -8,6 +8,17 @@ import java.util.Properties;
 
 public class ClientConfiguration {
 
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    public static final int DEFAULT_DISK_BUFFER_COUNT = 16;
+
+    public static final int DEFAULT_DISK_BUFFER_SIZE = 256 * 1024;
+
+    public static final int DEFAULT_ZSTD_LEVEL = 3;
+
+    // Leave at least one core to the download itself
+    public static final int DEFAULT_ZSTD_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
     private static  ClientConfiguration configuration = null;
 
     private  String username;
@@ -16,6 +27,14 @@ public class ClientConfiguration {
     private  String czdsBaseUrl;
     private  String czdsDownloadBaseUrl;
     private  String workingDirectory;
+    private  boolean http2Enabled;
+    private  int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private  OutputFormat outputFormat = OutputFormat.GZIP;
+    private  int zstdLevel = DEFAULT_ZSTD_LEVEL;
+    private  int zstdWorkers = DEFAULT_ZSTD_WORKERS;
+    private  int diskBufferCount = DEFAULT_DISK_BUFFER_COUNT;
+    private  int diskBufferSize = DEFAULT_DISK_BUFFER_SIZE;
+    private  boolean diskSyncEnabled;
 
 
     public static ClientConfiguration getInstance() throws IOException{
@@ -50,7 +69,40 @@ public class ClientConfiguration {
         if(czdsDownloadBaseUrl == null){
             czdsDownloadBaseUrl = czdsBaseUrl;
         }
-        return new ClientConfiguration(userName, password, authenBaseUrl, czdsBaseUrl, czdsDownloadBaseUrl, workingDir);
+        ClientConfiguration clientConfiguration = new ClientConfiguration(userName, password, authenBaseUrl, czdsBaseUrl, czdsDownloadBaseUrl, workingDir);
+
+        // Default to HTTP/1.1 with a small connection pool if not specified.
+        clientConfiguration.setHttp2Enabled(Boolean.parseBoolean(properties.getProperty("http2.enabled")));
+        String maxConnections = properties.getProperty("http.max.connections");
+        if(!StringUtils.isBlank(maxConnections)) {
+            clientConfiguration.setMaxConnections(Integer.parseInt(maxConnections.trim()));
+        }
+
+        // Default to saving zone files as downloaded (gzip) if not specified.
+        String outputFormat = properties.getProperty("output.format");
+        if(!StringUtils.isBlank(outputFormat)) {
+            clientConfiguration.setOutputFormat(outputFormat);
+        }
+        String zstdLevel = properties.getProperty("zstd.level");
+        if(!StringUtils.isBlank(zstdLevel)) {
+            clientConfiguration.setZstdLevel(Integer.parseInt(zstdLevel.trim()));
+        }
+        String zstdWorkers = properties.getProperty("zstd.workers");
+        if(!StringUtils.isBlank(zstdWorkers)) {
+            clientConfiguration.setZstdWorkers(Integer.parseInt(zstdWorkers.trim()));
+        }
+
+        // Default to 16 buffers of 256 KiB between the network and the disk, without fsync, if not specified.
+        String diskBufferCount = properties.getProperty("disk.buffer.count");
+        if(!StringUtils.isBlank(diskBufferCount)) {
+            clientConfiguration.setDiskBufferCount(Integer.parseInt(diskBufferCount.trim()));
+        }
+        String diskBufferSize = properties.getProperty("disk.buffer.size");
+        if(!StringUtils.isBlank(diskBufferSize)) {
+            clientConfiguration.setDiskBufferSize(Integer.parseInt(diskBufferSize.trim()));
+        }
+        clientConfiguration.setDiskSyncEnabled(Boolean.parseBoolean(properties.getProperty("disk.sync")));
+        return clientConfiguration;
     }
 
     /**
@@ -167,4 +219,86 @@ public class ClientConfiguration {
     public void setCzdsDownloadBaseUrl(String czdsDownloadBaseUrl) {
         this.czdsDownloadBaseUrl = czdsDownloadBaseUrl;
     }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        if(maxConnections > 0) {
+            this.maxConnections = maxConnections;
+        }
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(OutputFormat outputFormat) {
+        if(outputFormat != null) {
+            this.outputFormat = outputFormat;
+        }
+    }
+
+    public void setOutputFormat(String outputFormat) throws IOException {
+        try {
+            setOutputFormat(OutputFormat.valueOf(outputFormat.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(String.format("ERROR: unknown output format %s. Supported formats are gzip and zstd.", outputFormat));
+        }
+    }
+
+    public int getZstdLevel() {
+        return zstdLevel;
+    }
+
+    public void setZstdLevel(int zstdLevel) {
+        this.zstdLevel = zstdLevel;
+    }
+
+    public int getZstdWorkers() {
+        return zstdWorkers;
+    }
+
+    public void setZstdWorkers(int zstdWorkers) {
+        if(zstdWorkers >= 0) {
+            this.zstdWorkers = zstdWorkers;
+        }
+    }
+
+    public int getDiskBufferCount() {
+        return diskBufferCount;
+    }
+
+    public void setDiskBufferCount(int diskBufferCount) {
+        if(diskBufferCount > 0) {
+            this.diskBufferCount = diskBufferCount;
+        }
+    }
+
+    public int getDiskBufferSize() {
+        return diskBufferSize;
+    }
+
+    public void setDiskBufferSize(int diskBufferSize) {
+        if(diskBufferSize > 0) {
+            this.diskBufferSize = diskBufferSize;
+        }
+    }
+
+    public boolean isDiskSyncEnabled() {
+        return diskSyncEnabled;
+    }
+
+    public void setDiskSyncEnabled(boolean diskSyncEnabled) {
+        this.diskSyncEnabled = diskSyncEnabled;
+    }
 }
@@ -0,0 +1,37 @@
+package org.icann.czds.sdk.model;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Results of one run of zone file downloads, together with their summary and the report file they were written to.
+ */
+public class DownloadRunReport {
+
+    private final List<ZoneDownloadResult> results;
+
+    private final DownloadRunSummary summary;
+
+    private final File reportFile;
+
+    public DownloadRunReport(List<ZoneDownloadResult> results, DownloadRunSummary summary, File reportFile) {
+        this.results = results;
+        this.summary = summary;
+        this.reportFile = reportFile;
+    }
+
+    public List<ZoneDownloadResult> getResults() {
+        return results;
+    }
+
+    public DownloadRunSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * @return The JSON Lines report, or null if it was not saved or could not be written
+     */
+    public File getReportFile() {
+        return reportFile;
+    }
+}
@@ -0,0 +1,199 @@
+package org.icann.czds.sdk.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Totals and timing percentiles of one run of zone file downloads.
+ * <p>
+ * Percentiles are computed over the successful downloads only.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"type", "startedAt"})
+public class DownloadRunSummary {
+
+    @JsonProperty("startedAt")
+    private String startedAt;
+
+    @JsonProperty("durationMillis")
+    private long durationMillis;
+
+    @JsonProperty("zones")
+    private int zones;
+
+    @JsonProperty("succeeded")
+    private int succeeded;
+
+    @JsonProperty("skipped")
+    private int skipped;
+
+    @JsonProperty("failed")
+    private int failed;
+
+    @JsonProperty("retries")
+    private int retries;
+
+    @JsonProperty("totalBytes")
+    private long totalBytes;
+
+    @JsonProperty("throughputBytesPerSecond")
+    private long throughputBytesPerSecond;
+
+    @JsonProperty("durationMillisP50")
+    private long durationMillisP50;
+
+    @JsonProperty("durationMillisP90")
+    private long durationMillisP90;
+
+    @JsonProperty("durationMillisP99")
+    private long durationMillisP99;
+
+    @JsonProperty("durationMillisMax")
+    private long durationMillisMax;
+
+    @JsonProperty("timeToFirstByteMillisP50")
+    private long timeToFirstByteMillisP50;
+
+    @JsonProperty("timeToFirstByteMillisP90")
+    private long timeToFirstByteMillisP90;
+
+    @JsonProperty("timeToFirstByteMillisP99")
+    private long timeToFirstByteMillisP99;
+
+    @JsonProperty("type")
+    public String getType() {
+        return "summary";
+    }
+
+    /**
+     * @return ISO-8601 instant the run started at
+     */
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public int getZones() {
+        return zones;
+    }
+
+    public void setZones(int zones) {
+        this.zones = zones;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getThroughputBytesPerSecond() {
+        return throughputBytesPerSecond;
+    }
+
+    public void setThroughputBytesPerSecond(long throughputBytesPerSecond) {
+        this.throughputBytesPerSecond = throughputBytesPerSecond;
+    }
+
+    public long getDurationMillisP50() {
+        return durationMillisP50;
+    }
+
+    public void setDurationMillisP50(long durationMillisP50) {
+        this.durationMillisP50 = durationMillisP50;
+    }
+
+    public long getDurationMillisP90() {
+        return durationMillisP90;
+    }
+
+    public void setDurationMillisP90(long durationMillisP90) {
+        this.durationMillisP90 = durationMillisP90;
+    }
+
+    public long getDurationMillisP99() {
+        return durationMillisP99;
+    }
+
+    public void setDurationMillisP99(long durationMillisP99) {
+        this.durationMillisP99 = durationMillisP99;
+    }
+
+    public long getDurationMillisMax() {
+        return durationMillisMax;
+    }
+
+    public void setDurationMillisMax(long durationMillisMax) {
+        this.durationMillisMax = durationMillisMax;
+    }
+
+    public long getTimeToFirstByteMillisP50() {
+        return timeToFirstByteMillisP50;
+    }
+
+    public void setTimeToFirstByteMillisP50(long timeToFirstByteMillisP50) {
+        this.timeToFirstByteMillisP50 = timeToFirstByteMillisP50;
+    }
+
+    public long getTimeToFirstByteMillisP90() {
+        return timeToFirstByteMillisP90;
+    }
+
+    public void setTimeToFirstByteMillisP90(long timeToFirstByteMillisP90) {
+        this.timeToFirstByteMillisP90 = timeToFirstByteMillisP90;
+    }
+
+    public long getTimeToFirstByteMillisP99() {
+        return timeToFirstByteMillisP99;
+    }
+
+    public void setTimeToFirstByteMillisP99(long timeToFirstByteMillisP99) {
+        this.timeToFirstByteMillisP99 = timeToFirstByteMillisP99;
+    }
+}
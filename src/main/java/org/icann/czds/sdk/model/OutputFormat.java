@@ -0,0 +1,13 @@
+package org.icann.czds.sdk.model;
+
+/**
+ * Format in which downloaded zone files are saved.
+ */
+public enum OutputFormat {
+
+    /** Save the zone file as served by CZDS, gzip compressed */
+    GZIP,
+
+    /** Re-encode the downloaded gzip file with zstd in the background, while the next zones download */
+    ZSTD
+}
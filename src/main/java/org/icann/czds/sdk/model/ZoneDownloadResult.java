@@ -0,0 +1,223 @@
+package org.icann.czds.sdk.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Outcome of downloading the zone file of one zone.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "zone", "status"})
+public class ZoneDownloadResult {
+
+    public enum Status {
+        /** The zone file was downloaded and saved */
+        SUCCESS,
+        /** The zone file is not available to the user, i.e. not authorized (403) or not found (404) */
+        SKIPPED,
+        /** The download or saving the zone file failed */
+        FAILED
+    }
+
+    @JsonProperty("zone")
+    private String zone;
+
+    @JsonProperty("url")
+    private String url;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("file")
+    private String file;
+
+    @JsonProperty("bytes")
+    private long bytes;
+
+    @JsonProperty("durationMillis")
+    private long durationMillis;
+
+    @JsonProperty("throughputBytesPerSecond")
+    private long throughputBytesPerSecond;
+
+    @JsonProperty("timeToFirstByteMillis")
+    private long timeToFirstByteMillis;
+
+    @JsonProperty("retries")
+    private int retries;
+
+    @JsonProperty("httpStatus")
+    private int httpStatus;
+
+    @JsonProperty("downloadSha256")
+    private String downloadChecksum;
+
+    @JsonProperty("compressionRatio")
+    private Double compressionRatio;
+
+    @JsonProperty("compressionCpuMillis")
+    private Long compressionCpuMillis;
+
+    @JsonProperty("compressionWorkerCpuMillis")
+    private Long compressionWorkerCpuMillis;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("type")
+    public String getType() {
+        return "zone";
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * @return Number of bytes received from the server
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return Time taken by the whole download, from the head request until the zone file was saved
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getThroughputBytesPerSecond() {
+        return throughputBytesPerSecond;
+    }
+
+    public void setThroughputBytesPerSecond(long throughputBytesPerSecond) {
+        this.throughputBytesPerSecond = throughputBytesPerSecond;
+    }
+
+    /**
+     * @return Time from sending the download request until the response headers were received
+     */
+    public long getTimeToFirstByteMillis() {
+        return timeToFirstByteMillis;
+    }
+
+    public void setTimeToFirstByteMillis(long timeToFirstByteMillis) {
+        this.timeToFirstByteMillis = timeToFirstByteMillis;
+    }
+
+    /**
+     * @return Number of requests repeated after re-authenticating
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * @return Status code of the download request, 0 if no response was received. The head request is not counted.
+     */
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public void setHttpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    /**
+     * @return Hex encoded SHA-256 digest of the bytes received from the server, which are not the bytes of the saved
+     * file once it has been recompressed to zstd
+     */
+    public String getDownloadChecksum() {
+        return downloadChecksum;
+    }
+
+    public void setDownloadChecksum(String downloadChecksum) {
+        this.downloadChecksum = downloadChecksum;
+    }
+
+    /**
+     * @return Uncompressed size divided by saved size if the zone file was recompressed, null otherwise
+     */
+    public Double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    public void setCompressionRatio(Double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+
+    /**
+     * @return CPU time of the thread which recompressed the zone file, null if it was not recompressed or the JVM does
+     * not measure thread CPU time
+     */
+    public Long getCompressionCpuMillis() {
+        return compressionCpuMillis;
+    }
+
+    public void setCompressionCpuMillis(Long compressionCpuMillis) {
+        this.compressionCpuMillis = compressionCpuMillis;
+    }
+
+    /**
+     * @return Estimated CPU time of the zstd worker threads, see {@link #getCompressionCpuMillis()} for the rest
+     */
+    public Long getCompressionWorkerCpuMillis() {
+        return compressionWorkerCpuMillis;
+    }
+
+    public void setCompressionWorkerCpuMillis(Long compressionWorkerCpuMillis) {
+        this.compressionWorkerCpuMillis = compressionWorkerCpuMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,182 @@
+package org.icann.czds.sdk.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Runs both transports against a local HTTP/1.1 stub server.
+ */
+public class HttpTransportTest {
+
+    private static final byte[] ZONE = new byte[256 * 1024];
+
+    static {
+        Arrays.fill(ZONE, (byte) 'a');
+    }
+
+    private final Set<SocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private String baseUrl;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/zone", this::serveZone);
+        server.createContext("/echo", this::echo);
+        server.createContext("/stall", this::stall);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @BeforeMethod
+    public void resetConnections() {
+        connections.clear();
+    }
+
+    @Test
+    public void http1TransportReusesPooledConnection() throws IOException {
+        try (Http1Transport transport = new Http1Transport(4)) {
+            for (int i = 0; i < 5; i++) {
+                HttpResponse response = transport.execute(new HttpGet(baseUrl + "/zone"));
+                assertEquals(EntityUtils.toByteArray(response.getEntity()), ZONE);
+            }
+        }
+        assertEquals(connections.size(), 1);
+    }
+
+    @Test(expectedExceptions = ConnectionPoolTimeoutException.class, timeOut = 10_000)
+    public void http1TransportTimesOutWhenPoolIsExhausted() throws IOException {
+        try (Http1Transport transport = new Http1Transport(1, 500)) {
+            // Leak the only connection by never reading or closing the body
+            transport.execute(new HttpGet(baseUrl + "/zone"));
+            transport.execute(new HttpGet(baseUrl + "/zone"));
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void http1TransportFreesConnectionOfClosedResponse() throws IOException {
+        try (Http1Transport transport = new Http1Transport(1, 500)) {
+            HttpResponse partiallyRead = transport.execute(new HttpGet(baseUrl + "/zone"));
+            partiallyRead.getEntity().getContent().read();
+            ((Closeable) partiallyRead).close();
+
+            HttpResponse response = transport.execute(new HttpGet(baseUrl + "/zone"));
+            assertEquals(EntityUtils.toByteArray(response.getEntity()), ZONE);
+        }
+    }
+
+    @Test(expectedExceptions = SocketTimeoutException.class, timeOut = 10_000)
+    public void http1TransportTimesOutWhenServerStalls() throws IOException {
+        try (Http1Transport transport = new Http1Transport(1, 500, 500, 500)) {
+            transport.execute(new HttpGet(baseUrl + "/stall"));
+        }
+    }
+
+    @Test(expectedExceptions = HttpTimeoutException.class, timeOut = 10_000)
+    public void http2TransportTimesOutWhenServerStalls() throws IOException {
+        try (Http2Transport transport = new Http2Transport(500, 500)) {
+            transport.execute(new HttpGet(baseUrl + "/stall"));
+        }
+    }
+
+    @Test
+    public void http2TransportFallsBackToHttp1() throws IOException {
+        try (Http2Transport transport = new Http2Transport()) {
+            HttpResponse response = transport.execute(new HttpGet(baseUrl + "/zone"));
+            assertEquals(response.getStatusLine().getStatusCode(), 200);
+            assertEquals(response.getProtocolVersion(), HttpVersion.HTTP_1_1);
+            assertEquals(response.getFirstHeader("Content-disposition").getValue(), "attachment;filename=test.txt.gz");
+            assertEquals(EntityUtils.toByteArray(response.getEntity()), ZONE);
+        }
+    }
+
+    @Test
+    public void http2TransportSendsHeadWithoutBody() throws IOException {
+        try (Http2Transport transport = new Http2Transport()) {
+            HttpResponse response = transport.execute(new HttpHead(baseUrl + "/zone"));
+            assertEquals(response.getStatusLine().getStatusCode(), 200);
+            assertNull(response.getEntity());
+        }
+    }
+
+    @Test
+    public void http2TransportSendsEntityWithContentType() throws IOException {
+        try (Http2Transport transport = new Http2Transport()) {
+            HttpPost post = new HttpPost(baseUrl + "/echo");
+            post.setEntity(new StringEntity("{\"username\":\"user\"}", ContentType.APPLICATION_JSON));
+            HttpResponse response = transport.execute(post);
+            assertEquals(EntityUtils.toString(response.getEntity()),
+                    "application/json; charset=UTF-8 {\"username\":\"user\"}");
+        }
+    }
+
+    private void serveZone(HttpExchange exchange) throws IOException {
+        connections.add(exchange.getRemoteAddress());
+        exchange.getRequestBody().readAllBytes();
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        exchange.getResponseHeaders().add("Content-disposition", "attachment;filename=test.txt.gz");
+        exchange.sendResponseHeaders(200, head ? -1 : ZONE.length);
+        if (!head) {
+            exchange.getResponseBody().write(ZONE);
+        }
+        exchange.close();
+    }
+
+    private void stall(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.close();
+    }
+
+    private void echo(HttpExchange exchange) throws IOException {
+        byte[] body = (exchange.getRequestHeaders().getFirst("Content-Type") + " "
+                + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,127 @@
+package org.icann.czds.sdk.client;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.testng.Assert.assertEquals;
+
+public class MultiMemberGzipInputStreamTest {
+
+    @Test
+    public void readsAllMembersOfSocketLikeStream() throws IOException {
+        byte[] first = randomText(100_000, 1);
+        byte[] second = randomText(50_000, 2);
+        byte[] gzip = concat(gzip(first), gzip(second));
+
+        // A stream which never reports available bytes is what made GZIPInputStream stop after the first member
+        InputStream inputStream = new MultiMemberGzipInputStream(new TrickleInputStream(gzip, 7), 64);
+
+        assertEquals(inputStream.readAllBytes(), concat(first, second));
+    }
+
+    @Test
+    public void readsEmptyMember() throws IOException {
+        InputStream inputStream = new MultiMemberGzipInputStream(new ByteArrayInputStream(gzip(new byte[0])), 1024);
+
+        assertEquals(inputStream.readAllBytes(), new byte[0]);
+    }
+
+    @Test(expectedExceptions = ZipException.class)
+    public void failsOnTrailingData() throws IOException {
+        byte[] gzip = concat(gzip(randomText(1000, 3)), new byte[]{1, 2, 3});
+
+        new MultiMemberGzipInputStream(new ByteArrayInputStream(gzip), 1024).readAllBytes();
+    }
+
+    @Test
+    public void ignoresTrailingZeroPadding() throws IOException {
+        byte[] zone = randomText(1000, 3);
+        byte[] gzip = concat(gzip(zone), new byte[5000]);
+
+        InputStream inputStream = new MultiMemberGzipInputStream(new TrickleInputStream(gzip, 7), 64);
+
+        assertEquals(inputStream.readAllBytes(), zone);
+    }
+
+    @Test(expectedExceptions = ZipException.class)
+    public void failsOnDataAfterZeroPadding() throws IOException {
+        byte[] gzip = concat(gzip(randomText(1000, 3)), new byte[]{0, 0, 0, 1});
+
+        new MultiMemberGzipInputStream(new ByteArrayInputStream(gzip), 1024).readAllBytes();
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void failsOnTruncatedStream() throws IOException {
+        byte[] gzip = gzip(randomText(1000, 4));
+        byte[] truncated = new byte[gzip.length - 4];
+        System.arraycopy(gzip, 0, truncated, 0, truncated.length);
+
+        new MultiMemberGzipInputStream(new ByteArrayInputStream(truncated), 1024).readAllBytes();
+    }
+
+    @Test(expectedExceptions = ZipException.class)
+    public void failsOnCrcMismatch() throws IOException {
+        byte[] gzip = gzip(randomText(1000, 5));
+        gzip[gzip.length - 8] ^= 1;
+
+        new MultiMemberGzipInputStream(new ByteArrayInputStream(gzip), 1024).readAllBytes();
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(data);
+        }
+        return outputStream.toByteArray();
+    }
+
+    static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /*
+     * Zone file like data: compressible, but not trivially so.
+     */
+    static byte[] randomText(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return data;
+    }
+
+    /*
+     * Returns at most chunkSize bytes per read and never reports any as available, like a slow socket.
+     */
+    static class TrickleInputStream extends FilterInputStream {
+
+        private final int chunkSize;
+
+        TrickleInputStream(byte[] data, int chunkSize) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+}
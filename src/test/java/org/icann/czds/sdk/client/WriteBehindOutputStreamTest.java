@@ -0,0 +1,268 @@
+package org.icann.czds.sdk.client;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class WriteBehindOutputStreamTest {
+
+    @Test(timeOut = 10_000)
+    public void keepsOrderAndContent() throws IOException {
+        byte[] data = randomBytes(1_000_000);
+        BufferPool bufferPool = new BufferPool(3, 1000);
+        RecordingChannel channel = new RecordingChannel(0, Long.MAX_VALUE);
+
+        try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(channel, "test", bufferPool, false)) {
+            int offset = 0;
+            for (; offset < 10; offset++) {
+                outputStream.write(data[offset]);
+            }
+            Random random = new Random(1);
+            while (offset < data.length / 2) {
+                int length = Math.min(1 + random.nextInt(5000), data.length / 2 - offset);
+                outputStream.write(data, offset, length);
+                offset += length;
+            }
+            outputStream.transferFrom(new ChunkedInputStream(data, offset, 777, 0));
+        }
+
+        assertEquals(channel.getBytes(), data);
+        assertFalse(channel.isOpen());
+        assertEquals(bufferPool.getAvailable(), 3);
+    }
+
+    @Test(timeOut = 10_000)
+    public void writesEmptyStream() throws IOException {
+        BufferPool bufferPool = new BufferPool(2, 1024);
+        File file = File.createTempFile("zone", ".gz");
+        try {
+            Files.write(file.toPath(), randomBytes(100));
+
+            try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(file, bufferPool, true)) {
+                outputStream.transferFrom(new ByteArrayInputStream(new byte[0]));
+            }
+
+            assertEquals(Files.size(file.toPath()), 0);
+            assertEquals(bufferPool.getAvailable(), 2);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void reportsWriterFailureInsteadOfBlocking() {
+        BufferPool bufferPool = new BufferPool(2, 1024);
+        RecordingChannel channel = new RecordingChannel(0, 10_000);
+
+        try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(channel, "test", bufferPool, false)) {
+            byte[] data = randomBytes(1_000_000);
+            for (int offset = 0; offset < data.length; offset += 100) {
+                outputStream.write(data, offset, 100);
+            }
+            fail("Writing past the failure should have thrown");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        assertFalse(channel.isOpen());
+        assertEquals(bufferPool.getAvailable(), 2);
+    }
+
+    @Test(timeOut = 30_000)
+    public void returnsBuffersToPoolAcrossManyStreams() throws IOException {
+        BufferPool bufferPool = new BufferPool(2, 512);
+        byte[] data = randomBytes(5000);
+
+        for (int i = 0; i < 200; i++) {
+            boolean failing = i % 10 == 0;
+            RecordingChannel channel = new RecordingChannel(0, failing ? 1000 : Long.MAX_VALUE);
+            try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(channel, "test-" + i, bufferPool, false)) {
+                outputStream.transferFrom(new ByteArrayInputStream(data));
+            } catch (IOException e) {
+                assertTrue(failing, "Unexpected failure: " + e.getMessage());
+            }
+
+            assertEquals(bufferPool.getAvailable(), 2);
+            if (!failing) {
+                assertEquals(channel.getBytes(), data);
+            }
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void stopsWriterWhenCallerIsInterrupted() throws InterruptedException {
+        BufferPool bufferPool = new BufferPool(2, 1024);
+        RecordingChannel channel = new RecordingChannel(200, Long.MAX_VALUE);
+        AtomicReference<IOException> thrown = new AtomicReference<>();
+
+        Thread caller = new Thread(() -> {
+            try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(channel, "interrupted", bufferPool, false)) {
+                outputStream.write(randomBytes(100_000));
+            } catch (IOException e) {
+                thrown.set(e);
+            }
+        });
+        caller.start();
+        // By then the writer is busy with the first buffer and the caller waits for a free one
+        Thread.sleep(100);
+        caller.interrupt();
+        caller.join();
+
+        assertTrue(thrown.get() instanceof InterruptedIOException, String.valueOf(thrown.get()));
+        // Without the writer being interrupted as well, it would wait for more data forever: the test times out
+        while (channel.isOpen() || bufferPool.getAvailable() < 2 || isAlive("czds-disk-writer-interrupted")) {
+            Thread.sleep(10);
+        }
+    }
+
+    /*
+     * A network delivering 8 KiB per read and a disk taking the same time per write call, as a slow or
+     * high latency disk does. Files.copy writes every chunk as it is read, whereas the write-behind stage
+     * only writes full buffers, batching whatever has queued up meanwhile.
+     */
+    @Test(timeOut = 30_000)
+    public void batchesSmallWritesOnSlowDisk() throws IOException {
+        byte[] data = randomBytes(512 * 1024);
+        int delayMillis = 3;
+
+        RecordingChannel copyChannel = new RecordingChannel(delayMillis, Long.MAX_VALUE);
+        new ChunkedInputStream(data, 0, 8192, delayMillis).transferTo(Channels.newOutputStream(copyChannel));
+
+        RecordingChannel writeBehindChannel = new RecordingChannel(delayMillis, Long.MAX_VALUE);
+        try (WriteBehindOutputStream outputStream = new WriteBehindOutputStream(writeBehindChannel, "test", new BufferPool(16, 64 * 1024), false)) {
+            outputStream.transferFrom(new ChunkedInputStream(data, 0, 8192, delayMillis));
+        }
+
+        assertEquals(copyChannel.getBytes(), data);
+        assertEquals(writeBehindChannel.getBytes(), data);
+        assertEquals(copyChannel.getWriteCount(), 64);
+        assertTrue(writeBehindChannel.getWriteCount() <= 8, "write-behind took " + writeBehindChannel.getWriteCount() + " writes");
+    }
+
+    private static boolean isAlive(String threadName) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(threadName));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static void sleep(int millis) throws InterruptedIOException {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /*
+     * Simulated network: returns at most chunkSize bytes per read, each read taking delayMillis.
+     */
+    private static class ChunkedInputStream extends FilterInputStream {
+
+        private final int chunkSize;
+
+        private final int delayMillis;
+
+        ChunkedInputStream(byte[] data, int offset, int chunkSize, int delayMillis) {
+            super(new ByteArrayInputStream(data, offset, data.length - offset));
+            this.chunkSize = chunkSize;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            sleep(delayMillis);
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+
+    /*
+     * Simulated disk: every write call takes delayMillis, and writing fails once failAfterBytes have been written.
+     */
+    private static class RecordingChannel implements GatheringByteChannel {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final int delayMillis;
+
+        private final long failAfterBytes;
+
+        private int writeCount;
+
+        private boolean open = true;
+
+        RecordingChannel(int delayMillis, long failAfterBytes) {
+            this.delayMillis = delayMillis;
+            this.failAfterBytes = failAfterBytes;
+        }
+
+        @Override
+        public synchronized long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            sleep(delayMillis);
+            writeCount++;
+            long written = 0;
+            for (int i = offset; i < offset + length; i++) {
+                while (srcs[i].hasRemaining()) {
+                    if (bytes.size() >= failAfterBytes) {
+                        throw new IOException("Simulated disk failure");
+                    }
+                    bytes.write(srcs[i].get());
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return (int) write(new ByteBuffer[]{src}, 0, 1);
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public synchronized void close() {
+            open = false;
+        }
+
+        synchronized byte[] getBytes() {
+            return bytes.toByteArray();
+        }
+
+        synchronized int getWriteCount() {
+            return writeCount;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package org.icann.czds.sdk.client;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.lang3.StringUtils;
+import org.icann.czds.sdk.model.AuthenticationException;
+import org.icann.czds.sdk.model.ClientConfiguration;
+import org.icann.czds.sdk.model.DownloadRunReport;
+import org.icann.czds.sdk.model.OutputFormat;
+import org.icann.czds.sdk.model.ZoneDownloadResult;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Downloads zone files from a local stub of the authentication and CZDS REST endpoints.
+ */
+public class ZoneDownloadClientTest {
+
+    private static final byte[] ZONE = MultiMemberGzipInputStreamTest.randomText(100_000, 1);
+
+    private static final byte[] GZIPPED_ZONE;
+
+    static {
+        try {
+            GZIPPED_ZONE = MultiMemberGzipInputStreamTest.gzip(ZONE);
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final AtomicInteger expiredRequests = new AtomicInteger();
+
+    private final AtomicInteger droppedRequests = new AtomicInteger();
+
+    private CountDownLatch lastZoneRequested;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private String baseUrl;
+
+    private File workingDirectory;
+
+    private ClientConfiguration configuration;
+
+    private ZoneDownloadClient client;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/authenticate/", exchange -> respond(exchange, 200, "{\"accessToken\":\"token\"}".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/czds/downloads/", this::serveDownload);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @BeforeMethod
+    public void createClient() throws IOException {
+        workingDirectory = Files.createTempDirectory("czds").toFile();
+        expiredRequests.set(0);
+        droppedRequests.set(0);
+        lastZoneRequested = new CountDownLatch(1);
+
+        configuration = ClientConfiguration.getInstance();
+        configuration.setAuthenticationBaseUrl(baseUrl);
+        configuration.setCzdsBaseUrl(baseUrl);
+        configuration.setCzdsDownloadBaseUrl(baseUrl);
+        configuration.setWorkingDirectory(workingDirectory.getAbsolutePath());
+        configuration.setOutputFormat(OutputFormat.GZIP);
+        client = new ZoneDownloadClient(configuration);
+    }
+
+    @AfterMethod
+    public void closeClient() throws IOException {
+        client.close();
+        File[] zoneFiles = new File(workingDirectory, "zonefiles").listFiles();
+        if (zoneFiles != null) {
+            Arrays.stream(zoneFiles).forEach(File::delete);
+        }
+        new File(workingDirectory, "zonefiles").delete();
+        Arrays.stream(workingDirectory.listFiles()).forEach(File::delete);
+        workingDirectory.delete();
+    }
+
+    @Test(timeOut = 60_000)
+    public void reportsOutcomeOfEveryZone() throws Exception {
+        DownloadRunReport report = client.downloadZoneFiles(List.of("ok", "denied", "dropped", "expired"));
+
+        List<ZoneDownloadResult> results = report.getResults();
+        assertEquals(results.size(), 4);
+
+        ZoneDownloadResult ok = results.get(0);
+        assertEquals(ok.getZone(), "ok");
+        assertEquals(ok.getStatus(), ZoneDownloadResult.Status.SUCCESS);
+        assertEquals(ok.getHttpStatus(), 200);
+        assertEquals(ok.getRetries(), 0);
+        assertEquals(ok.getBytes(), ZONE.length);
+        assertEquals(ok.getDownloadChecksum(), HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(ZONE)));
+        assertEquals(Files.readAllBytes(new File(ok.getFile()).toPath()), ZONE);
+
+        ZoneDownloadResult denied = results.get(1);
+        assertEquals(denied.getStatus(), ZoneDownloadResult.Status.SKIPPED);
+        assertEquals(denied.getHttpStatus(), 403);
+
+        // The head request is refused, but the download fails without any response: not a skipped zone
+        ZoneDownloadResult dropped = results.get(2);
+        assertEquals(dropped.getStatus(), ZoneDownloadResult.Status.FAILED);
+        assertEquals(dropped.getHttpStatus(), 0);
+        assertEquals(dropped.getRetries(), 3);
+        assertEquals(droppedRequests.get(), 4);
+        assertNotNull(dropped.getError());
+
+        ZoneDownloadResult expired = results.get(3);
+        assertEquals(expired.getStatus(), ZoneDownloadResult.Status.SUCCESS);
+        assertEquals(expired.getHttpStatus(), 200);
+        assertEquals(expired.getRetries(), 1);
+
+        assertEquals(report.getSummary().getSucceeded(), 2);
+        assertEquals(report.getSummary().getSkipped(), 1);
+        assertEquals(report.getSummary().getFailed(), 1);
+        assertEquals(report.getSummary().getRetries(), 4);
+
+        assertNotNull(report.getReportFile());
+        List<String> lines = Files.readAllLines(report.getReportFile().toPath());
+        assertEquals(lines.size(), 5);
+        assertTrue(lines.get(0).startsWith("{\"type\":\"zone\",\"zone\":\"ok\",\"status\":\"SUCCESS\""), lines.get(0));
+        assertTrue(lines.get(4).startsWith("{\"type\":\"summary\""), lines.get(4));
+    }
+
+    @Test(timeOut = 60_000)
+    public void legacyDownloadSavesNoReport() throws Exception {
+        List<File> zoneFiles = client.downloadApprovedZoneFiles();
+
+        assertEquals(zoneFiles.size(), 1);
+        assertEquals(zoneFiles.get(0).getName(), "ok.txt.gz");
+        String[] reports = workingDirectory.list((directory, name) -> name.endsWith(".jsonl"));
+        assertEquals(reports.length, 0);
+    }
+
+    @Test(timeOut = 60_000, expectedExceptions = AuthenticationException.class)
+    public void legacySingleZoneDownloadStillThrows() throws Exception {
+        client.downloadZoneFile("denied");
+    }
+
+    @Test(timeOut = 60_000)
+    public void recompressesZoneFilesToZstd() throws Exception {
+        configuration.setOutputFormat(OutputFormat.ZSTD);
+
+        DownloadRunReport report = client.downloadZoneFiles(List.of("gzipped1", "gzipped2"));
+
+        for (ZoneDownloadResult result : report.getResults()) {
+            assertEquals(result.getStatus(), ZoneDownloadResult.Status.SUCCESS);
+            assertTrue(result.getFile().endsWith(".txt.zst"), result.getFile());
+            assertEquals(readZstd(new File(result.getFile())), ZONE);
+            assertNotNull(result.getCompressionRatio());
+            assertNull(result.getError());
+            // The checksum is the one of what was downloaded, not of the zstd file
+            assertEquals(result.getDownloadChecksum(), HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(GZIPPED_ZONE)));
+        }
+        assertEquals(new File(workingDirectory, "zonefiles").list((directory, name) -> name.endsWith(".gz")).length, 0);
+        assertEquals(readZstd(client.downloadZoneFile("gzipped3")), ZONE);
+    }
+
+    @Test(timeOut = 60_000)
+    public void keepsGzipWhenRecompressionFallsBehind() throws Exception {
+        configuration.setOutputFormat(OutputFormat.ZSTD);
+        client.close();
+        client = new ZoneDownloadClient(configuration) {
+            @Override
+            protected ZstdRecompressor createRecompressor() {
+                return new ZstdRecompressor(3, 0) {
+                    @Override
+                    public Stats recompress(InputStream inputStream, OutputStream outputStream) throws IOException {
+                        // Hold recompression up until every zone but the last one has been downloaded
+                        try {
+                            lastZoneRequested.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException();
+                        }
+                        return super.recompress(inputStream, outputStream);
+                    }
+                };
+            }
+        };
+
+        DownloadRunReport report = client.downloadZoneFiles(List.of("gzipped1", "gzipped2", "gzipped3", "gzipped4", "gzipped5"));
+
+        List<ZoneDownloadResult> results = report.getResults();
+        // One zone file being recompressed and two queued: the fourth is not waited for
+        for (int i = 0; i < 3; i++) {
+            assertEquals(results.get(i).getStatus(), ZoneDownloadResult.Status.SUCCESS);
+            assertEquals(readZstd(new File(results.get(i).getFile())), ZONE);
+        }
+        ZoneDownloadResult behind = results.get(3);
+        assertEquals(behind.getStatus(), ZoneDownloadResult.Status.SUCCESS);
+        assertTrue(behind.getFile().endsWith("gzipped4.txt.gz"), behind.getFile());
+        assertNull(behind.getCompressionRatio());
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(behind.getFile()))) {
+            assertEquals(inputStream.readAllBytes(), ZONE);
+        }
+    }
+
+    private static byte[] readZstd(File file) throws IOException {
+        try (InputStream inputStream = new ZstdInputStream(new FileInputStream(file))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private void serveDownload(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        String name = exchange.getRequestURI().getPath().substring("/czds/downloads/".length());
+        if (name.startsWith("gzipped")) {
+            if (head && name.equals("gzipped5.zone")) {
+                lastZoneRequested.countDown();
+            }
+            exchange.getResponseHeaders().add("Content-disposition", "attachment;filename=" + StringUtils.removeEnd(name, ".zone") + ".txt.gz");
+            respond(exchange, 200, head ? null : GZIPPED_ZONE);
+            return;
+        }
+        switch (name) {
+            case "links":
+                respond(exchange, 200, ("[\"" + baseUrl + "/czds/downloads/ok.zone\",\"" + baseUrl + "/czds/downloads/denied.zone\"]")
+                        .getBytes(StandardCharsets.UTF_8));
+                break;
+            case "ok.zone":
+                respondWithZone(exchange, "ok", head);
+                break;
+            case "denied.zone":
+                respond(exchange, 403, null);
+                break;
+            case "dropped.zone":
+                if (head) {
+                    respond(exchange, 403, null);
+                } else {
+                    // Drop the connection without answering
+                    droppedRequests.incrementAndGet();
+                    exchange.close();
+                }
+                break;
+            case "expired.zone":
+                if (!head && expiredRequests.getAndIncrement() == 0) {
+                    respond(exchange, 401, null);
+                } else {
+                    respondWithZone(exchange, "expired", head);
+                }
+                break;
+            default:
+                respond(exchange, 404, null);
+        }
+    }
+
+    private void respondWithZone(HttpExchange exchange, String zone, boolean head) throws IOException {
+        exchange.getResponseHeaders().add("Content-disposition", "attachment;filename=" + zone + ".txt.gz");
+        respond(exchange, 200, head ? null : ZONE);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body == null ? -1 : body.length);
+        if (body != null) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,73 @@
+package org.icann.czds.sdk.client;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.ZipException;
+
+import static org.icann.czds.sdk.client.MultiMemberGzipInputStreamTest.TrickleInputStream;
+import static org.icann.czds.sdk.client.MultiMemberGzipInputStreamTest.concat;
+import static org.icann.czds.sdk.client.MultiMemberGzipInputStreamTest.gzip;
+import static org.icann.czds.sdk.client.MultiMemberGzipInputStreamTest.randomText;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class ZstdRecompressorTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void createFile() throws IOException {
+        file = File.createTempFile("zone", ".zst");
+    }
+
+    @AfterMethod
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test(timeOut = 30_000)
+    public void recompressesMultiMemberGzip() throws IOException {
+        byte[] zone = concat(randomText(300_000, 1), randomText(200_000, 2));
+        byte[] gzip = concat(gzip(randomText(300_000, 1)), gzip(randomText(200_000, 2)));
+
+        ZstdRecompressor.Stats stats = new ZstdRecompressor(3, 2).recompress(new TrickleInputStream(gzip, 1000), new FileOutputStream(file));
+
+        try (InputStream inputStream = new ZstdInputStream(new FileInputStream(file))) {
+            assertEquals(inputStream.readAllBytes(), zone);
+        }
+        assertEquals(stats.getDownloadedBytes(), gzip.length);
+        assertEquals(stats.getUncompressedBytes(), zone.length);
+        assertEquals(stats.getSavedBytes(), Files.size(file.toPath()));
+        assertTrue(stats.getCompressionRatio() > 1);
+        // HotSpot measures thread and process CPU time
+        assertNotNull(stats.getCpuMillis());
+        assertNotNull(stats.getWorkerCpuMillis());
+    }
+
+    @Test
+    public void reportsNoWorkerCpuWithoutWorkers() throws IOException {
+        byte[] gzip = gzip(randomText(100_000, 5));
+
+        ZstdRecompressor.Stats stats = new ZstdRecompressor(3, 0).recompress(new ByteArrayInputStream(gzip), new FileOutputStream(file));
+
+        assertEquals(stats.getWorkerCpuMillis(), Long.valueOf(0));
+    }
+
+    @Test(expectedExceptions = ZipException.class)
+    public void failsOnTrailingData() throws IOException {
+        byte[] gzip = concat(gzip(randomText(1000, 3)), randomText(100_000, 4));
+
+        new ZstdRecompressor(3, 0).recompress(new ByteArrayInputStream(gzip), new FileOutputStream(file));
+    }
+}